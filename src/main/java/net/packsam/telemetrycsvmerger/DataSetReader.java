@@ -52,16 +52,19 @@ public class DataSetReader {
 			var column = columns[i];
 			var cellString = line[i];
 
-			var cellValue = switch (column.type()) {
-				case NUMERIC -> new BigDecimal(cellString);
-				case DATETIME -> LocalDateTime.parse(cellString, DATETIME_FORMAT);
-			};
-			data.put(column.name(), cellValue);
+			data.put(column.name(), parseCell(cellString, column.type()));
 		}
 
 		return data;
 	}
 
+	static Comparable<? extends Comparable<?>> parseCell(String cellString, DataColumn.Type type) {
+		return switch (type) {
+			case NUMERIC -> new BigDecimal(cellString);
+			case DATETIME -> LocalDateTime.parse(cellString, DATETIME_FORMAT);
+		};
+	}
+
 	private DataColumn[] parseHeader(String[] headerData) {
 		return Stream.of(headerData)
 				.map(columnName -> new DataColumn(
@@ -72,7 +75,7 @@ public class DataSetReader {
 				.toArray(DataColumn[]::new);
 	}
 
-	private DataColumn.Type getColumnType(String columnName) {
+	static DataColumn.Type getColumnType(String columnName) {
 		if ("DateTime".equals(columnName)) {
 			return DataColumn.Type.DATETIME;
 		} else {
@@ -3,56 +3,170 @@ package net.packsam.telemetrycsvmerger;
 import com.opencsv.CSVWriter;
 import net.packsam.telemetrycsvmerger.model.DataColumn;
 import net.packsam.telemetrycsvmerger.model.DataSet;
+import net.packsam.telemetrycsvmerger.model.TimeIndex;
 
+import java.io.BufferedOutputStream;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.Charset;
 import java.time.LocalDateTime;
-import java.util.LinkedList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Stream;
 
 import static com.opencsv.ICSVWriter.NO_ESCAPE_CHARACTER;
 import static com.opencsv.ICSVWriter.NO_QUOTE_CHARACTER;
 import static net.packsam.telemetrycsvmerger.DataSetReader.DATETIME_FORMAT;
+import static net.packsam.telemetrycsvmerger.DataSetReader.parseCell;
 
 public class DataSetWriter {
+	static final Set<String> INDEX_COLUMN_NAMES = Set.of("DateTime", "GlobalTime");
+
 	private final Map<String, BigDecimal> factors;
 
-	public DataSetWriter(Map<String, BigDecimal> factors) {
+	private final Map<String, Integer> precisions;
+
+	private final int indexInterval;
+
+	/**
+	 * @param factors       factors to apply to numeric columns
+	 * @param precisions    number of fraction digits of numeric columns, columns with a factor but without precision
+	 *                      keep the largest scale of their input values
+	 * @param indexInterval number of rows between two entries of the time index sidecar, {@code 0} to write no index
+	 */
+	public DataSetWriter(Map<String, BigDecimal> factors, Map<String, Integer> precisions, int indexInterval) {
 		this.factors = factors;
+		this.precisions = precisions;
+		this.indexInterval = indexInterval;
 	}
 
 	public void write(DataSet dataSet, File file) {
-		try (var csvWriter = new CSVWriter(new FileWriter(file), ',', NO_QUOTE_CHARACTER, NO_ESCAPE_CHARACTER, "\r\n")) {
-			var lines = new LinkedList<String[]>();
-			DataColumn[] columns = dataSet.columns();
+		DataColumn[] columns = dataSet.columns();
+		var scales = getScales(dataSet);
+		var indexColumns = Stream.of(columns)
+				.filter(column -> INDEX_COLUMN_NAMES.contains(column.name()))
+				.toArray(DataColumn[]::new);
+		var indexEntries = new ArrayList<TimeIndex.Entry>();
+		new TimeIndexWriter().deleteIndexOf(file);
 
-			lines.add(writeHeader(columns));
+		try (
+				var outputStream = new CountingOutputStream(new BufferedOutputStream(new FileOutputStream(file)));
+				var csvWriter = new CSVWriter(new OutputStreamWriter(outputStream, Charset.defaultCharset()), ',', NO_QUOTE_CHARACTER, NO_ESCAPE_CHARACTER, "\r\n")
+		) {
+			csvWriter.writeNext(writeHeader(columns));
+
+			var rowNumber = 0L;
 			for (var dataRow : dataSet.data()) {
-				lines.add(writeData(dataRow, columns));
+				var line = writeData(dataRow, columns, scales);
+				if (indexInterval > 0 && indexColumns.length > 0 && rowNumber % indexInterval == 0) {
+					// pushes the encoded characters to the counting stream, which does not flush them down to the file
+					csvWriter.flush();
+					indexEntries.add(createIndexEntry(outputStream.getCount(), line, columns));
+				}
+				csvWriter.writeNext(line);
+				rowNumber++;
 			}
-
-			csvWriter.writeAll(lines);
 		} catch (IOException e) {
 			throw new RuntimeException("Can not write file", e);
 		}
+
+		if (indexInterval > 0 && indexColumns.length > 0) {
+			new TimeIndexWriter().write(new TimeIndex(file.length(), indexColumns, indexEntries), file);
+		}
+	}
+
+	private TimeIndex.Entry createIndexEntry(long offset, String[] line, DataColumn[] columns) {
+		var values = new LinkedHashMap<String, Comparable<? extends Comparable<?>>>();
+		for (var i = 0; i < columns.length; i++) {
+			var column = columns[i];
+			if (INDEX_COLUMN_NAMES.contains(column.name())) {
+				// parse the written cell again so the index contains exactly the values of the output file
+				values.put(column.name(), parseCell(line[i], column.type()));
+			}
+		}
+		return new TimeIndex.Entry(offset, values);
+	}
+
+	/**
+	 * Determines the number of fraction digits of the numeric columns with a factor or a configured precision, all
+	 * other values are written as they are. Without a configured precision it is the largest scale of the input values
+	 * of the column, so all values of a column are rounded the same way and sorted columns stay sorted. A factor below
+	 * 1 adds the digits it shifts the values by, i.e. 2 digits for a factor of 0.01.
+	 */
+	private Map<String, Integer> getScales(DataSet dataSet) {
+		var scales = new HashMap<String, Integer>();
+		var inputScaleColumns = new ArrayList<String>();
+		for (var column : dataSet.columns()) {
+			var columnName = column.name();
+			if (column.type() != DataColumn.Type.NUMERIC) {
+				continue;
+			}
+
+			var precision = precisions.get(columnName);
+			if (precision != null) {
+				scales.put(columnName, precision);
+			} else if (factors.containsKey(columnName)) {
+				inputScaleColumns.add(columnName);
+			}
+		}
+		if (inputScaleColumns.isEmpty()) {
+			return scales;
+		}
+
+		var inputScales = new int[inputScaleColumns.size()];
+		for (var dataRow : dataSet.data()) {
+			for (var i = 0; i < inputScales.length; i++) {
+				inputScales[i] = Math.max(inputScales[i], ((BigDecimal) dataRow.get(inputScaleColumns.get(i))).scale());
+			}
+		}
+		for (var i = 0; i < inputScales.length; i++) {
+			var columnName = inputScaleColumns.get(i);
+			scales.put(columnName, inputScales[i] + getFactorDigits(columnName));
+		}
+		return scales;
 	}
 
-	private String[] writeData(Map<String, Comparable<? extends Comparable<?>>> dataRow, DataColumn[] columns) {
+	private int getFactorDigits(String columnName) {
+		BigDecimal factor = factors.get(columnName);
+		if (factor == null || factor.signum() == 0) {
+			return 0;
+		}
+
+		// exponent of the leading digit, i.e. -2 for 0.01
+		var exponent = factor.precision() - factor.scale() - 1;
+		return Math.max(-exponent, 0);
+	}
+
+	private String[] writeData(Map<String, Comparable<? extends Comparable<?>>> dataRow, DataColumn[] columns, Map<String, Integer> scales) {
 		return Stream.of(columns)
 				.map(column -> {
 					String columnName = column.name();
 					var cellValue = dataRow.get(columnName);
 					return switch (column.type()) {
-						case NUMERIC -> applyFactor((BigDecimal) cellValue, columnName).toPlainString();
+						case NUMERIC -> formatNumber((BigDecimal) cellValue, columnName, scales.get(columnName));
 						case DATETIME -> ((LocalDateTime) cellValue).format(DATETIME_FORMAT);
 					};
 				})
 				.toArray(String[]::new);
 	}
 
+	private String formatNumber(BigDecimal value, String columnName, Integer scale) {
+		if (scale == null) {
+			return value.toPlainString();
+		}
+
+		return applyFactor(value, columnName).setScale(scale, RoundingMode.HALF_UP).toPlainString();
+	}
+
 	private BigDecimal applyFactor(BigDecimal value, String columnName) {
 		BigDecimal factor = factors.get(columnName);
 		if (factor == null) {
@@ -67,4 +181,36 @@ public class DataSetWriter {
 				.map(DataColumn::name)
 				.toArray(String[]::new);
 	}
+
+	private static class CountingOutputStream extends FilterOutputStream {
+		private long count;
+
+		CountingOutputStream(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		/**
+		 * Does not flush the underlying stream, so counting the bytes written so far does not force a write to the
+		 * file. The buffered bytes are flushed when the stream is closed.
+		 */
+		@Override
+		public void flush() {
+		}
+
+		long getCount() {
+			return count;
+		}
+	}
 }
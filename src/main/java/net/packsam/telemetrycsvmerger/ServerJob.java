@@ -0,0 +1,126 @@
+package net.packsam.telemetrycsvmerger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Callable;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A merge or compare job submitted to the {@link TelemetryServer}.
+ */
+public class ServerJob implements Runnable {
+	private final long id;
+
+	private final Type type;
+
+	private final String[] args;
+
+	private final Callable<String> task;
+
+	private final Instant submittedAt = Instant.now();
+
+	private volatile Status status = Status.QUEUED;
+
+	private volatile Instant startedAt;
+
+	private volatile Instant finishedAt;
+
+	private volatile String message;
+
+	/**
+	 * @param task the work of the job, returning a message for the job status
+	 */
+	public ServerJob(long id, Type type, String[] args, Callable<String> task) {
+		this.id = id;
+		this.type = type;
+		this.args = args;
+		this.task = task;
+	}
+
+	@Override
+	public void run() {
+		startedAt = Instant.now();
+		status = Status.RUNNING;
+		try {
+			finish(Status.SUCCEEDED, task.call());
+		} catch (Exception e) {
+			finish(Status.FAILED, e.getMessage() != null ? e.getMessage() : e.toString());
+		} finally {
+			if (status == Status.RUNNING) {
+				finish(Status.FAILED, null);
+			}
+		}
+	}
+
+	private void finish(Status status, String message) {
+		this.message = message;
+		this.finishedAt = Instant.now();
+		this.status = status;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public Status getStatus() {
+		return status;
+	}
+
+	public boolean isFinished() {
+		return status == Status.SUCCEEDED || status == Status.FAILED;
+	}
+
+	public String toJson() {
+		var startedAt = this.startedAt;
+		var finishedAt = this.finishedAt;
+		var queueEnd = startedAt != null ? startedAt : finishedAt != null ? finishedAt : Instant.now();
+		var runEnd = finishedAt != null ? finishedAt : Instant.now();
+
+		return "{" +
+				"\"id\":" + id +
+				",\"type\":\"" + type + "\"" +
+				",\"args\":" + Stream.of(args).map(ServerJob::toJsonString).collect(Collectors.joining(",", "[", "]")) +
+				",\"status\":\"" + status + "\"" +
+				",\"message\":" + toJsonString(message) +
+				",\"submittedAt\":" + toJsonString(submittedAt) +
+				",\"startedAt\":" + toJsonString(startedAt) +
+				",\"finishedAt\":" + toJsonString(finishedAt) +
+				",\"queueMillis\":" + Duration.between(submittedAt, queueEnd).toMillis() +
+				",\"runMillis\":" + (startedAt != null ? Duration.between(startedAt, runEnd).toMillis() : 0) +
+				"}";
+	}
+
+	static String toJsonString(Object value) {
+		if (value == null) {
+			return "null";
+		}
+
+		var json = new StringBuilder("\"");
+		for (var c : value.toString().toCharArray()) {
+			switch (c) {
+				case '"' -> json.append("\\\"");
+				case '\\' -> json.append("\\\\");
+				case '\n' -> json.append("\\n");
+				case '\r' -> json.append("\\r");
+				case '\t' -> json.append("\\t");
+				default -> {
+					if (c < 0x20) {
+						json.append(String.format("\\u%04x", (int) c));
+					} else {
+						json.append(c);
+					}
+				}
+			}
+		}
+		return json.append('"').toString();
+	}
+
+	public enum Type {
+		MERGE, COMPARE
+	}
+
+	public enum Status {
+		QUEUED, RUNNING, SUCCEEDED, FAILED
+	}
+}
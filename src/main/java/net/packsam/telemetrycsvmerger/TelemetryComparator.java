@@ -19,17 +19,23 @@ public class TelemetryComparator {
 			throw new IllegalArgumentException("You have to pass 2 telemetry files to compare.");
 		}
 
-		var file1 = new File(args[0]);
-		var file2 = new File(args[1]);
+		compare(new File(args[0]), new File(args[1]));
 
+		System.out.println("Files are equal.");
+	}
+
+	/**
+	 * Compares the data of both telemetry files.
+	 *
+	 * @throws RuntimeException if the files are not equal
+	 */
+	static void compare(File file1, File file2) {
 		var reader = new DataSetReader();
 		DataSet dataSet1 = reader.parseFile(file1);
 		DataSet dataSet2 = reader.parseFile(file2);
 
 		compareColumns(dataSet1.columns(), dataSet2.columns());
 		compareData(dataSet1.data(), dataSet2.data(), dataSet1.columns());
-
-		System.out.println("Files are equal.");
 	}
 
 	private static void compareData(List<Map<String, Comparable<? extends Comparable<?>>>> data1, List<Map<String, Comparable<? extends Comparable<?>>>> data2, DataColumn[] columns) {
@@ -1,5 +1,7 @@
 package net.packsam.telemetrycsvmerger;
 
+import net.packsam.telemetrycsvmerger.model.DataColumn;
+import net.packsam.telemetrycsvmerger.model.TimeRange;
 import org.apache.commons.cli.CommandLine;
 import org.apache.commons.cli.DefaultParser;
 import org.apache.commons.cli.HelpFormatter;
@@ -8,7 +10,13 @@ import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 
 import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeFormatterBuilder;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoField;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -20,6 +28,11 @@ import java.util.stream.Stream;
 import static java.util.Collections.emptyMap;
 
 public class TelemetryMerger {
+	private static final DateTimeFormatter TIME_OPTION_FORMAT = new DateTimeFormatterBuilder()
+			.appendPattern("yyyy-MM-dd HH:mm:ss")
+			.optionalStart()
+			.appendFraction(ChronoField.NANO_OF_SECOND, 0, 9, true)
+			.toFormatter();
 
 	public static final Option OPTION_FACTOR = Option.builder()
 			.option("f")
@@ -30,6 +43,15 @@ public class TelemetryMerger {
 			.desc("Defines a factor for a field to adjust all values. Can be used multiple times for different fields.")
 			.build();
 
+	public static final Option OPTION_PRECISION = Option.builder()
+			.option("p")
+			.longOpt("precision")
+			.numberOfArgs(2)
+			.valueSeparator('=')
+			.argName("field=digits")
+			.desc("Defines the number of fraction digits for a numeric field. Fields without precision keep the scale of the input values. Can be used multiple times for different fields.")
+			.build();
+
 	public static final Option OPTION_OUTPUT = Option.builder()
 			.option("o")
 			.longOpt("output")
@@ -38,18 +60,96 @@ public class TelemetryMerger {
 			.desc("Output file.")
 			.build();
 
+	public static final Option OPTION_INDEX = Option.builder()
+			.option("i")
+			.longOpt("index")
+			.hasArg()
+			.argName("rows")
+			.desc("Writes a time index sidecar file with an entry every <rows> rows next to the output file.")
+			.build();
+
+	public static final Option OPTION_FROM = Option.builder()
+			.longOpt("from")
+			.hasArg()
+			.argName("time")
+			.desc("Extracts all rows from the given DateTime or GlobalTime value of a single merged file.")
+			.build();
+
+	public static final Option OPTION_TO = Option.builder()
+			.longOpt("to")
+			.hasArg()
+			.argName("time")
+			.desc("Extracts all rows up to the given DateTime or GlobalTime value of a single merged file.")
+			.build();
+
+	public static final Option OPTION_SERVER = Option.builder()
+			.option("s")
+			.longOpt("server")
+			.hasArg()
+			.argName("port")
+			.desc("Starts a server on localhost that accepts merge and compare jobs via HTTP instead of merging files.")
+			.build();
+
+	public static final Option OPTION_THREADS = Option.builder()
+			.option("t")
+			.longOpt("threads")
+			.hasArg()
+			.argName("count")
+			.desc("Maximum number of jobs the server runs concurrently. Defaults to the number of processors.")
+			.build();
+
 	public static final Option OPTION_HELP = Option.builder()
 			.option("h")
 			.longOpt("help")
 			.desc("Prints this help.")
 			.build();
 
-	public static void main(String[] args) throws ParseException {
+	public static void main(String[] args) throws ParseException, IOException {
 		var commandLine = parseCommandLine(args);
+
+		try {
+			if (commandLine.hasOption(OPTION_SERVER)) {
+				var port = getIntOptionValue(commandLine, OPTION_SERVER, 0, 0);
+				var threads = getIntOptionValue(commandLine, OPTION_THREADS, Runtime.getRuntime().availableProcessors(), 1);
+				var server = new TelemetryServer(port, threads);
+				Runtime.getRuntime().addShutdownHook(new Thread(server::stop));
+				server.start();
+				System.out.println("Listening on " + server.getAddress());
+				return;
+			}
+
+			run(commandLine);
+		} catch (IllegalArgumentException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+	}
+
+	/**
+	 * Merges the input files or extracts a time range as defined by the given command line.
+	 *
+	 * @throws IllegalArgumentException if the arguments are invalid
+	 */
+	static void run(CommandLine commandLine) {
 		var factors = getFactors(commandLine);
 		var outputFile = new File(commandLine.getOptionValue(OPTION_OUTPUT, "merged.csv"));
 		var csvFiles = getArgumentsAsFiles(commandLine.getArgs());
 
+		if (commandLine.hasOption(OPTION_FROM) || commandLine.hasOption(OPTION_TO)) {
+			if (csvFiles.size() != 1) {
+				throw new IllegalArgumentException("Exactly one input file is required to extract a time range.");
+			}
+			if (commandLine.hasOption(OPTION_FACTOR) || commandLine.hasOption(OPTION_PRECISION) || commandLine.hasOption(OPTION_INDEX)) {
+				throw new IllegalArgumentException("A time range extraction copies the rows as they are and can not be combined with --factor, --precision or --index.");
+			}
+
+			var extractor = new TimeRangeExtractor();
+			extractor.extract(csvFiles.get(0), getTimeRange(commandLine), outputFile);
+			return;
+		}
+
+		var indexInterval = getIntOptionValue(commandLine, OPTION_INDEX, 0, 0);
+
 		var reader = new DataSetReader();
 		var dataSets = csvFiles.parallelStream()
 				.map(reader::parseFile)
@@ -58,7 +158,7 @@ public class TelemetryMerger {
 		var merger = new DataSetsMerger();
 		var merged = merger.merge(dataSets);
 
-		var dataSetWriter = new DataSetWriter(factors);
+		var dataSetWriter = new DataSetWriter(factors, getPrecisions(commandLine), indexInterval);
 		dataSetWriter.write(merged, outputFile);
 	}
 
@@ -75,11 +175,89 @@ public class TelemetryMerger {
 				));
 	}
 
-	private static CommandLine parseCommandLine(String[] args) throws ParseException {
-		var argsParser = new DefaultParser();
-		var argsOptions = new Options()
+	private static Map<String, Integer> getPrecisions(CommandLine commandLine) {
+		if (!commandLine.hasOption(OPTION_PRECISION)) {
+			return emptyMap();
+		}
+
+		var optionProperties = commandLine.getOptionProperties(OPTION_PRECISION);
+		return optionProperties.entrySet().stream()
+				.collect(Collectors.toMap(
+						entry -> entry.getKey().toString(),
+						entry -> Integer.valueOf(entry.getValue().toString())
+				));
+	}
+
+	private static int getIntOptionValue(CommandLine commandLine, Option option, int defaultValue, int minValue) {
+		if (!commandLine.hasOption(option)) {
+			return defaultValue;
+		}
+
+		var value = commandLine.getOptionValue(option);
+		try {
+			var intValue = Integer.parseInt(value);
+			if (intValue >= minValue) {
+				return intValue;
+			}
+		} catch (NumberFormatException e) {
+			// handled below like a value that is too small
+		}
+		throw new IllegalArgumentException("Invalid value " + value + " of option --" + option.getLongOpt() + ". Use a number of at least " + minValue + ".");
+	}
+
+	private static TimeRange getTimeRange(CommandLine commandLine) {
+		var from = parseTime(commandLine.getOptionValue(OPTION_FROM));
+		var to = parseTime(commandLine.getOptionValue(OPTION_TO));
+		if (from != null && to != null && !from.getClass().equals(to.getClass())) {
+			throw new IllegalArgumentException("Options --from and --to must both be a DateTime or both be a GlobalTime value.");
+		}
+
+		var column = (from != null ? from : to) instanceof LocalDateTime
+				? new DataColumn("DateTime", DataColumn.Type.DATETIME, DataColumn.AggregationType.NONE)
+				: new DataColumn("GlobalTime", DataColumn.Type.NUMERIC, DataColumn.AggregationType.INC);
+		return new TimeRange(column, from, to);
+	}
+
+	private static Comparable<? extends Comparable<?>> parseTime(String value) {
+		if (value == null) {
+			return null;
+		}
+
+		try {
+			return LocalDateTime.parse(value, TIME_OPTION_FORMAT);
+		} catch (DateTimeParseException e) {
+			// not a DateTime, so it has to be a GlobalTime value
+		}
+
+		try {
+			return new BigDecimal(value);
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid time " + value + ". Use a DateTime (yyyy-MM-dd HH:mm:ss[.SSSSSS]) or GlobalTime value.", e);
+		}
+	}
+
+	/**
+	 * Parses the arguments of a merge job, without the options to start a server.
+	 */
+	static CommandLine parseJobCommandLine(String[] args) throws ParseException {
+		return new DefaultParser().parse(createJobOptions(), args);
+	}
+
+	private static Options createJobOptions() {
+		return new Options()
 				.addOption(OPTION_FACTOR)
+				.addOption(OPTION_PRECISION)
 				.addOption(OPTION_OUTPUT)
+				.addOption(OPTION_INDEX)
+				.addOption(OPTION_FROM)
+				.addOption(OPTION_TO);
+	}
+
+	private static CommandLine parseCommandLine(String[] args) throws ParseException {
+		var argsParser = new DefaultParser();
+		var argsOptions = createJobOptions()
+				.addOption(OPTION_SERVER)
+				.addOption(OPTION_THREADS)
 				.addOption(OPTION_HELP);
 		var commandLine = argsParser.parse(argsOptions, args);
 
@@ -103,8 +281,7 @@ public class TelemetryMerger {
 		for (var arg : args) {
 			var argFile = new File(arg);
 			if (!argFile.exists()) {
-				System.err.println("File " + argFile.getAbsolutePath() + " does not exist.");
-				System.exit(1);
+				throw new IllegalArgumentException("File " + argFile.getAbsolutePath() + " does not exist.");
 			}
 
 			if (argFile.isFile()) {
@@ -0,0 +1,212 @@
+package net.packsam.telemetrycsvmerger;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.cli.ParseException;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps a warm JVM running and accepts merge and compare jobs via HTTP on localhost.
+ * <p>
+ * Jobs are submitted by {@code POST /jobs/merge} or {@code POST /jobs/compare} with the command line arguments of
+ * {@link TelemetryMerger} or {@link TelemetryComparator} as request body, one argument per line. Relative paths are
+ * resolved against the working directory of the server. The jobs are queued and run concurrently on a bounded
+ * executor. Their status and timing can be requested by {@code GET /jobs} and {@code GET /jobs/<id>}. Only the latest
+ * {@value #MAX_FINISHED_JOBS} finished jobs are kept.
+ * <p>
+ * As jobs write arbitrary files, requests from web pages are rejected: requests with an {@code Origin} header are
+ * forbidden and jobs have to be submitted with a content type that browsers can not send without a CORS preflight,
+ * i.e. {@code text/x-arguments}.
+ */
+public class TelemetryServer {
+	static final int QUEUE_SIZE = 100;
+
+	static final int MAX_FINISHED_JOBS = 1000;
+
+	static final long STOP_TIMEOUT_SECONDS = 30;
+
+	/**
+	 * Content types a browser sends cross-origin without a preflight request.
+	 */
+	private static final Set<String> CORS_SIMPLE_CONTENT_TYPES = Set.of("text/plain", "application/x-www-form-urlencoded", "multipart/form-data");
+
+	private final HttpServer httpServer;
+
+	private final ThreadPoolExecutor executor;
+
+	private final Map<Long, ServerJob> jobs = new ConcurrentSkipListMap<>();
+
+	private final AtomicLong nextJobId = new AtomicLong(1);
+
+	private final int maxFinishedJobs;
+
+	public TelemetryServer(int port, int threads) throws IOException {
+		this(port, threads, MAX_FINISHED_JOBS);
+	}
+
+	TelemetryServer(int port, int threads, int maxFinishedJobs) throws IOException {
+		this.maxFinishedJobs = maxFinishedJobs;
+		this.httpServer = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(QUEUE_SIZE));
+
+		httpServer.createContext("/jobs", this::handle);
+	}
+
+	public void start() {
+		httpServer.start();
+	}
+
+	/**
+	 * Stops accepting requests and waits up to {@value #STOP_TIMEOUT_SECONDS} seconds for queued and running jobs to
+	 * finish, so their output files are complete. Jobs that are still running after that are interrupted.
+	 */
+	public void stop() {
+		httpServer.stop(0);
+		executor.shutdown();
+		try {
+			if (!executor.awaitTermination(STOP_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+				executor.shutdownNow();
+			}
+		} catch (InterruptedException e) {
+			executor.shutdownNow();
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	public InetSocketAddress getAddress() {
+		return httpServer.getAddress();
+	}
+
+	private void handle(HttpExchange exchange) throws IOException {
+		try (exchange) {
+			var path = exchange.getRequestURI().getPath();
+			var method = exchange.getRequestMethod();
+
+			if (exchange.getRequestHeaders().containsKey("Origin")) {
+				respondError(exchange, 403, "Requests from web pages are not allowed.");
+			} else if ("POST".equals(method) && !hasJobContentType(exchange)) {
+				respondError(exchange, 415, "Jobs have to be submitted with a content type like text/x-arguments.");
+			} else if ("POST".equals(method) && "/jobs/merge".equals(path)) {
+				submit(exchange, ServerJob.Type.MERGE);
+			} else if ("POST".equals(method) && "/jobs/compare".equals(path)) {
+				submit(exchange, ServerJob.Type.COMPARE);
+			} else if ("GET".equals(method) && ("/jobs".equals(path) || "/jobs/".equals(path))) {
+				var json = jobs.values().stream()
+						.map(ServerJob::toJson)
+						.collect(Collectors.joining(",", "[", "]"));
+				respond(exchange, 200, json);
+			} else if ("GET".equals(method) && path.startsWith("/jobs/")) {
+				var job = findJob(path.substring("/jobs/".length()));
+				if (job == null) {
+					respondError(exchange, 404, "Job not found.");
+				} else {
+					respond(exchange, 200, job.toJson());
+				}
+			} else {
+				respondError(exchange, 404, "Unknown request " + method + " " + path);
+			}
+		}
+	}
+
+	private boolean hasJobContentType(HttpExchange exchange) {
+		var contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+		if (contentType == null) {
+			return false;
+		}
+
+		var mediaType = contentType.split(";", 2)[0].trim().toLowerCase(Locale.ROOT);
+		return !mediaType.isEmpty() && !CORS_SIMPLE_CONTENT_TYPES.contains(mediaType);
+	}
+
+	private void submit(HttpExchange exchange, ServerJob.Type type) throws IOException {
+		var body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+		var args = body.lines()
+				.filter(line -> !line.isBlank())
+				.toArray(String[]::new);
+
+		ServerJob job;
+		try {
+			job = createJob(type, args);
+		} catch (ParseException | IllegalArgumentException e) {
+			respondError(exchange, 400, e.getMessage());
+			return;
+		}
+
+		evictFinishedJobs();
+		jobs.put(job.getId(), job);
+		try {
+			executor.execute(job);
+		} catch (RejectedExecutionException e) {
+			jobs.remove(job.getId());
+			respondError(exchange, 503, "Job queue is full.");
+			return;
+		}
+
+		exchange.getResponseHeaders().set("Location", "/jobs/" + job.getId());
+		respond(exchange, 202, job.toJson());
+	}
+
+	private ServerJob createJob(ServerJob.Type type, String[] args) throws ParseException {
+		return switch (type) {
+			case MERGE -> {
+				var commandLine = TelemetryMerger.parseJobCommandLine(args);
+				yield new ServerJob(nextJobId.getAndIncrement(), type, args, () -> {
+					TelemetryMerger.run(commandLine);
+					return null;
+				});
+			}
+			case COMPARE -> {
+				if (args.length != 2) {
+					throw new IllegalArgumentException("You have to pass 2 telemetry files to compare.");
+				}
+				yield new ServerJob(nextJobId.getAndIncrement(), type, args, () -> {
+					TelemetryComparator.compare(new File(args[0]), new File(args[1]));
+					return "Files are equal.";
+				});
+			}
+		};
+	}
+
+	private void evictFinishedJobs() {
+		var finishedJobs = jobs.values().stream()
+				.filter(ServerJob::isFinished)
+				.toList();
+		finishedJobs.stream()
+				.limit(Math.max(finishedJobs.size() - maxFinishedJobs, 0))
+				.forEach(job -> jobs.remove(job.getId()));
+	}
+
+	private ServerJob findJob(String id) {
+		try {
+			return jobs.get(Long.parseLong(id));
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private void respondError(HttpExchange exchange, int statusCode, String message) throws IOException {
+		respond(exchange, statusCode, "{\"error\":" + ServerJob.toJsonString(message) + "}");
+	}
+
+	private void respond(HttpExchange exchange, int statusCode, String json) throws IOException {
+		var bytes = json.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+		exchange.sendResponseHeaders(statusCode, bytes.length);
+		exchange.getResponseBody().write(bytes);
+	}
+}
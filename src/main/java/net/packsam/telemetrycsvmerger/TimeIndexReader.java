@@ -0,0 +1,70 @@
+package net.packsam.telemetrycsvmerger;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvException;
+import net.packsam.telemetrycsvmerger.model.DataColumn;
+import net.packsam.telemetrycsvmerger.model.TimeIndex;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+
+import static net.packsam.telemetrycsvmerger.DataSetReader.getColumnType;
+import static net.packsam.telemetrycsvmerger.DataSetReader.parseCell;
+import static net.packsam.telemetrycsvmerger.TimeIndexWriter.DATA_LENGTH;
+import static net.packsam.telemetrycsvmerger.TimeIndexWriter.OFFSET_COLUMN;
+import static net.packsam.telemetrycsvmerger.TimeIndexWriter.getIndexFile;
+
+public class TimeIndexReader {
+
+	/**
+	 * Reads the index sidecar of the given data file. An index that is missing, unreadable, older than the data file or
+	 * written for a data file of another length is ignored, as it is only used to speed up the search in the data file.
+	 */
+	public Optional<TimeIndex> parseIndexOf(File dataFile) {
+		var indexFile = getIndexFile(dataFile);
+		if (!indexFile.isFile() || indexFile.lastModified() < dataFile.lastModified()) {
+			return Optional.empty();
+		}
+
+		try (var csvReader = new CSVReader(new FileReader(indexFile))) {
+			var lines = csvReader.readAll();
+			var iterator = lines.iterator();
+
+			var dataLength = iterator.next();
+			if (dataLength.length != 2 || !DATA_LENGTH.equals(dataLength[0]) || Long.parseLong(dataLength[1]) != dataFile.length()) {
+				return Optional.empty();
+			}
+
+			var header = iterator.next();
+			if (header.length == 0 || !OFFSET_COLUMN.equals(header[0])) {
+				return Optional.empty();
+			}
+			var columns = Arrays.stream(header, 1, header.length)
+					.map(columnName -> new DataColumn(columnName, getColumnType(columnName), DataColumn.AggregationType.NONE))
+					.toArray(DataColumn[]::new);
+
+			var entries = new ArrayList<TimeIndex.Entry>(lines.size() - 2);
+			while (iterator.hasNext()) {
+				var line = iterator.next();
+				if (line.length != header.length) {
+					return Optional.empty();
+				}
+
+				var values = new LinkedHashMap<String, Comparable<? extends Comparable<?>>>();
+				for (var i = 0; i < columns.length; i++) {
+					values.put(columns[i].name(), parseCell(line[i + 1], columns[i].type()));
+				}
+				entries.add(new TimeIndex.Entry(Long.parseLong(line[0]), values));
+			}
+
+			return Optional.of(new TimeIndex(dataFile.length(), columns, entries));
+		} catch (IOException | CsvException | RuntimeException e) {
+			return Optional.empty();
+		}
+	}
+}
@@ -0,0 +1,78 @@
+package net.packsam.telemetrycsvmerger;
+
+import com.opencsv.CSVWriter;
+import net.packsam.telemetrycsvmerger.model.DataColumn;
+import net.packsam.telemetrycsvmerger.model.TimeIndex;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.time.LocalDateTime;
+import java.util.stream.Stream;
+
+import static com.opencsv.ICSVWriter.NO_ESCAPE_CHARACTER;
+import static com.opencsv.ICSVWriter.NO_QUOTE_CHARACTER;
+import static net.packsam.telemetrycsvmerger.DataSetReader.DATETIME_FORMAT;
+
+public class TimeIndexWriter {
+	static final String DATA_LENGTH = "DataLength";
+
+	static final String OFFSET_COLUMN = "Offset";
+
+	static final String INDEX_FILE_SUFFIX = ".idx";
+
+	static File getIndexFile(File dataFile) {
+		return new File(dataFile.getPath() + INDEX_FILE_SUFFIX);
+	}
+
+	/**
+	 * Deletes the index sidecar of the given data file, so an index of previous file contents is not used.
+	 */
+	public void deleteIndexOf(File dataFile) {
+		var indexFile = getIndexFile(dataFile);
+		try {
+			Files.deleteIfExists(indexFile.toPath());
+		} catch (IOException e) {
+			throw new RuntimeException("Can not delete index file " + indexFile, e);
+		}
+	}
+
+	public void write(TimeIndex timeIndex, File dataFile) {
+		var indexFile = getIndexFile(dataFile);
+		try (var csvWriter = new CSVWriter(new FileWriter(indexFile), ',', NO_QUOTE_CHARACTER, NO_ESCAPE_CHARACTER, "\r\n")) {
+			var columns = timeIndex.columns();
+
+			csvWriter.writeNext(new String[]{DATA_LENGTH, Long.toString(timeIndex.dataLength())});
+			csvWriter.writeNext(writeHeader(columns));
+			for (var entry : timeIndex.entries()) {
+				csvWriter.writeNext(writeEntry(entry, columns));
+			}
+		} catch (IOException e) {
+			throw new RuntimeException("Can not write index file " + indexFile, e);
+		}
+	}
+
+	private String[] writeEntry(TimeIndex.Entry entry, DataColumn[] columns) {
+		var line = new String[columns.length + 1];
+		line[0] = Long.toString(entry.offset());
+		for (var i = 0; i < columns.length; i++) {
+			var column = columns[i];
+			var cellValue = entry.values().get(column.name());
+			line[i + 1] = switch (column.type()) {
+				case NUMERIC -> ((BigDecimal) cellValue).toPlainString();
+				case DATETIME -> ((LocalDateTime) cellValue).format(DATETIME_FORMAT);
+			};
+		}
+		return line;
+	}
+
+	private String[] writeHeader(DataColumn[] columns) {
+		return Stream.concat(
+						Stream.of(OFFSET_COLUMN),
+						Stream.of(columns).map(DataColumn::name)
+				)
+				.toArray(String[]::new);
+	}
+}
@@ -0,0 +1,212 @@
+package net.packsam.telemetrycsvmerger;
+
+import net.packsam.telemetrycsvmerger.model.TimeIndex;
+import net.packsam.telemetrycsvmerger.model.TimeRange;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Optional;
+import java.util.function.Predicate;
+
+import static net.packsam.telemetrycsvmerger.DataSetReader.parseCell;
+
+/**
+ * Extracts all rows of a time range from a CSV file written by {@link DataSetWriter} without parsing the whole file.
+ * The rows have to be sorted by the column of the time range. The start and end of the range are looked up in the time
+ * index sidecar of the file if available or are searched binary in the memory mapped file otherwise. Only the rows
+ * within the range are copied to the output file.
+ */
+public class TimeRangeExtractor {
+	private static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+	private final long segmentSize;
+
+	public TimeRangeExtractor() {
+		this(DEFAULT_SEGMENT_SIZE);
+	}
+
+	/**
+	 * @param segmentSize maximum size of a single mapped segment of the file
+	 */
+	TimeRangeExtractor(long segmentSize) {
+		this.segmentSize = segmentSize;
+	}
+
+	public void extract(File file, TimeRange timeRange, File outputFile) {
+		if (isSameFile(file, outputFile)) {
+			throw new IllegalArgumentException("The output file " + outputFile + " must not be the input file.");
+		}
+
+		new TimeIndexWriter().deleteIndexOf(outputFile);
+		var timeIndex = new TimeIndexReader().parseIndexOf(file)
+				.filter(index -> index.entries().stream().allMatch(entry -> entry.values().containsKey(timeRange.column().name())));
+
+		try (
+				var inputChannel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+				var outputChannel = FileChannel.open(outputFile.toPath(), StandardOpenOption.WRITE, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING)
+		) {
+			var mappedFile = MappedFile.map(inputChannel, segmentSize);
+			var dataStart = mappedFile.nextLineStart(1);
+			var keyColumnIndex = findColumnIndex(mappedFile.readLine(0), timeRange.column().name());
+
+			Predicate<Comparable<?>> beforeFrom = key -> timeRange.from() != null && compare(key, timeRange.from()) < 0;
+			Predicate<Comparable<?>> notAfterTo = key -> timeRange.to() == null || compare(key, timeRange.to()) <= 0;
+
+			var rangeStart = findFirstLine(mappedFile, dataStart, timeIndex, timeRange, keyColumnIndex, beforeFrom);
+			var rangeEnd = findFirstLine(mappedFile, rangeStart, timeIndex, timeRange, keyColumnIndex, notAfterTo);
+
+			outputChannel.write(ByteBuffer.wrap(mappedFile.readBytes(0, dataStart)));
+			transfer(inputChannel, rangeStart, rangeEnd, outputChannel);
+		} catch (IOException e) {
+			throw new RuntimeException("Can not extract time range from file " + file, e);
+		}
+	}
+
+	private boolean isSameFile(File file, File outputFile) {
+		try {
+			return file.getCanonicalFile().equals(outputFile.getCanonicalFile());
+		} catch (IOException e) {
+			throw new RuntimeException("Can not resolve file " + outputFile, e);
+		}
+	}
+
+	/**
+	 * Finds the start of the first line at or after {@code from} whose key does not match {@code isBefore}.
+	 */
+	private long findFirstLine(
+			MappedFile mappedFile,
+			long from,
+			Optional<TimeIndex> timeIndex,
+			TimeRange timeRange,
+			int keyColumnIndex,
+			Predicate<Comparable<?>> isBefore
+	) {
+		if (timeIndex.isPresent()) {
+			var start = from;
+			for (var entry : timeIndex.get().entries()) {
+				if (entry.offset() < from) {
+					continue;
+				}
+				if (!isBefore.test(entry.values().get(timeRange.column().name()))) {
+					break;
+				}
+				start = entry.offset();
+			}
+
+			var lineStart = start;
+			while (lineStart < mappedFile.size() && isBefore.test(readKey(mappedFile, lineStart, keyColumnIndex, timeRange))) {
+				lineStart = mappedFile.nextLineStart(lineStart + 1);
+			}
+			return lineStart;
+		}
+
+		var low = from;
+		var high = mappedFile.size();
+		while (low < high) {
+			var lineStart = mappedFile.lineStartOf(low + (high - low) / 2, low);
+			if (isBefore.test(readKey(mappedFile, lineStart, keyColumnIndex, timeRange))) {
+				low = mappedFile.nextLineStart(lineStart + 1);
+			} else {
+				high = lineStart;
+			}
+		}
+		return low;
+	}
+
+	private Comparable<?> readKey(MappedFile mappedFile, long lineStart, int keyColumnIndex, TimeRange timeRange) {
+		var line = mappedFile.readLine(lineStart);
+		var cells = line.split(",", -1);
+		if (cells.length <= keyColumnIndex) {
+			throw new RuntimeException("Invalid number of columns in line at offset " + lineStart);
+		}
+		return parseCell(cells[keyColumnIndex], timeRange.column().type());
+	}
+
+	private int findColumnIndex(String header, String columnName) {
+		var columnNames = header.split(",", -1);
+		for (var i = 0; i < columnNames.length; i++) {
+			if (columnName.equals(columnNames[i])) {
+				return i;
+			}
+		}
+		throw new RuntimeException("Column " + columnName + " not found in file.");
+	}
+
+	private void transfer(FileChannel inputChannel, long start, long end, FileChannel outputChannel) throws IOException {
+		var position = start;
+		while (position < end) {
+			position += inputChannel.transferTo(position, end - position, outputChannel);
+		}
+	}
+
+	@SuppressWarnings({"unchecked", "rawtypes"})
+	private static int compare(Comparable key, Comparable value) {
+		return key.compareTo(value);
+	}
+
+	/**
+	 * A read only file mapped in segments, as a single {@link MappedByteBuffer} can not exceed 2 GB.
+	 */
+	private record MappedFile(MappedByteBuffer[] segments, long segmentSize, long size) {
+
+		static MappedFile map(FileChannel channel, long segmentSize) throws IOException {
+			var size = channel.size();
+			var segments = new MappedByteBuffer[(int) ((size + segmentSize - 1) / segmentSize)];
+			for (var i = 0; i < segments.length; i++) {
+				var position = i * segmentSize;
+				segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(segmentSize, size - position));
+			}
+			return new MappedFile(segments, segmentSize, size);
+		}
+
+		byte byteAt(long position) {
+			return segments[(int) (position / segmentSize)].get((int) (position % segmentSize));
+		}
+
+		/**
+		 * Returns the start of the line containing {@code position}, but not before {@code lowerBound}.
+		 */
+		long lineStartOf(long position, long lowerBound) {
+			var lineStart = position;
+			while (lineStart > lowerBound && byteAt(lineStart - 1) != '\n') {
+				lineStart--;
+			}
+			return lineStart;
+		}
+
+		/**
+		 * Returns the first line start at or after {@code position}.
+		 */
+		long nextLineStart(long position) {
+			var lineStart = position;
+			while (lineStart < size && lineStart > 0 && byteAt(lineStart - 1) != '\n') {
+				lineStart++;
+			}
+			return Math.min(lineStart, size);
+		}
+
+		String readLine(long lineStart) {
+			var lineEnd = lineStart;
+			while (lineEnd < size && byteAt(lineEnd) != '\n') {
+				lineEnd++;
+			}
+			if (lineEnd > lineStart && byteAt(lineEnd - 1) == '\r') {
+				lineEnd--;
+			}
+			return new String(readBytes(lineStart, lineEnd), Charset.defaultCharset());
+		}
+
+		byte[] readBytes(long start, long end) {
+			var bytes = new byte[(int) (end - start)];
+			for (var i = 0; i < bytes.length; i++) {
+				bytes[i] = byteAt(start + i);
+			}
+			return bytes;
+		}
+	}
+}
@@ -0,0 +1,10 @@
+package net.packsam.telemetrycsvmerger.model;
+
+import java.util.List;
+import java.util.Map;
+
+public record TimeIndex(long dataLength, DataColumn[] columns, List<Entry> entries) {
+
+	public record Entry(long offset, Map<String, Comparable<? extends Comparable<?>>> values) {
+	}
+}
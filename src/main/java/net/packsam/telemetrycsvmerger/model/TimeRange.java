@@ -0,0 +1,4 @@
+package net.packsam.telemetrycsvmerger.model;
+
+public record TimeRange(DataColumn column, Comparable<? extends Comparable<?>> from, Comparable<? extends Comparable<?>> to) {
+}
@@ -0,0 +1,69 @@
+package net.packsam.telemetrycsvmerger;
+
+import net.packsam.telemetrycsvmerger.model.DataColumn;
+import net.packsam.telemetrycsvmerger.model.DataSet;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DataSetWriterTest {
+	private static final DataColumn GLOBAL_TIME = new DataColumn("GlobalTime", DataColumn.Type.NUMERIC, DataColumn.AggregationType.INC);
+
+	private static final DataColumn SPEED = new DataColumn("Speed", DataColumn.Type.NUMERIC, DataColumn.AggregationType.NONE);
+
+	@TempDir
+	Path tempDir;
+
+	@Test
+	void writesValuesWithoutFactorOrPrecisionAsTheyAre() throws IOException {
+		var lines = write(emptyMap(), emptyMap());
+
+		assertEquals(List.of("GlobalTime,Speed", "1.96,1", "2,2", "2.5,3"), lines);
+	}
+
+	@Test
+	void roundsFactoredValuesToInputScaleOfColumn() throws IOException {
+		var lines = write(Map.of("GlobalTime", new BigDecimal("1.04")), emptyMap());
+
+		assertEquals(List.of("GlobalTime,Speed", "2.04,1", "2.08,2", "2.60,3"), lines);
+	}
+
+	@Test
+	void addsDigitsOfFactorsBelowOne() throws IOException {
+		var lines = write(Map.of("Speed", new BigDecimal("0.001")), emptyMap());
+
+		assertEquals(List.of("GlobalTime,Speed", "1.96,0.001", "2,0.002", "2.5,0.003"), lines);
+	}
+
+	@Test
+	void writesConfiguredPrecision() throws IOException {
+		var lines = write(Map.of("GlobalTime", new BigDecimal("1.040051829056665")), Map.of("GlobalTime", 4, "Speed", 1));
+
+		assertEquals(List.of("GlobalTime,Speed", "2.0385,1.0", "2.0801,2.0", "2.6001,3.0"), lines);
+	}
+
+	private List<String> write(Map<String, BigDecimal> factors, Map<String, Integer> precisions) throws IOException {
+		var data = new ArrayList<Map<String, Comparable<? extends Comparable<?>>>>();
+		for (var values : List.of(List.of("1.96", "1"), List.of("2", "2"), List.of("2.5", "3"))) {
+			var row = new LinkedHashMap<String, Comparable<? extends Comparable<?>>>();
+			row.put(GLOBAL_TIME.name(), new BigDecimal(values.get(0)));
+			row.put(SPEED.name(), new BigDecimal(values.get(1)));
+			data.add(row);
+		}
+
+		var file = tempDir.resolve("output.csv").toFile();
+		new DataSetWriter(factors, precisions, 0).write(new DataSet(new DataColumn[]{GLOBAL_TIME, SPEED}, data), file);
+		return Files.readAllLines(file.toPath());
+	}
+}
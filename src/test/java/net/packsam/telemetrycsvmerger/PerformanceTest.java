@@ -0,0 +1,162 @@
+package net.packsam.telemetrycsvmerger;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static java.util.Collections.emptyMap;
+import static net.packsam.telemetrycsvmerger.DataSetReader.DATETIME_FORMAT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Measures allocated bytes and retained heap per row of the reader, merger and writer on generated fixtures and fails
+ * if the budgets are exceeded. The retained heap is the heap used after a full GC while the result is still referenced,
+ * compared to before the operation, so it does not depend on when the garbage collector happens to run. The fixture
+ * size is configured in the pom, the profile {@code perf-large} runs the same tests on larger fixtures. The budgets are
+ * defined below and can be overridden by system properties, i.e. {@code mvn test -Dperf.write.allocatedBytesPerRow=8000}.
+ */
+class PerformanceTest {
+	private static final String HEADER = "DateTime,GlobalTime,Speed KPH,Speed MPH,Altitude,Latitude,Longitude,Total Distance,GPSU[Time],Speed Min KPH,Speed Max KPH,Altitude Max";
+
+	private static final int ROWS = Integer.getInteger("perf.rows", 25000);
+
+	@TempDir
+	static Path tempDir;
+
+	private static List<File> fixtures;
+
+	@BeforeAll
+	static void createFixtures() throws IOException {
+		fixtures = List.of(
+				createFixture(tempDir.resolve("fixture1.csv").toFile(), ROWS, LocalDateTime.of(2022, 5, 1, 10, 0)),
+				createFixture(tempDir.resolve("fixture2.csv").toFile(), ROWS, LocalDateTime.of(2022, 5, 1, 11, 0))
+		);
+
+		// warm up class loading and JIT so they are not part of the measurements
+		var warmUpFile = createFixture(tempDir.resolve("warmup.csv").toFile(), 1000, LocalDateTime.of(2022, 5, 1, 9, 0));
+		var warmUpDataSet = new DataSetReader().parseFile(warmUpFile);
+		var warmUpMerged = new DataSetsMerger().merge(List.of(warmUpDataSet, warmUpDataSet));
+		new DataSetWriter(Map.of("GlobalTime", new BigDecimal("1.040051829056665")), emptyMap(), 0)
+				.write(warmUpMerged, tempDir.resolve("warmup-merged.csv").toFile());
+	}
+
+	@Test
+	void parseFile() {
+		var reader = new DataSetReader();
+
+		var measurement = measure(() -> reader.parseFile(fixtures.get(0)));
+
+		assertEquals(ROWS, measurement.result().data().size());
+		assertBudget("parse", measurement, ROWS, 6000, 1800);
+	}
+
+	@Test
+	void merge() {
+		var reader = new DataSetReader();
+		var dataSets = fixtures.stream()
+				.map(reader::parseFile)
+				.toList();
+		var merger = new DataSetsMerger();
+
+		var measurement = measure(() -> merger.merge(dataSets));
+
+		assertEquals(2 * ROWS, measurement.result().data().size());
+		assertBudget("merge", measurement, 2 * ROWS, 1800, 900);
+	}
+
+	@Test
+	void write() {
+		var reader = new DataSetReader();
+		var merged = new DataSetsMerger().merge(fixtures.stream()
+				.map(reader::parseFile)
+				.toList());
+		var writer = new DataSetWriter(Map.of("GlobalTime", new BigDecimal("1.040051829056665")), emptyMap(), 1000);
+		var outputFile = tempDir.resolve("merged.csv").toFile();
+
+		var measurement = measure(() -> {
+			writer.write(merged, outputFile);
+			return merged;
+		});
+
+		assertTrue(outputFile.length() > 0);
+		assertBudget("write", measurement, 2 * ROWS, 7000, 100);
+	}
+
+	private static File createFixture(File file, int rows, LocalDateTime start) throws IOException {
+		try (var writer = new BufferedWriter(new FileWriter(file))) {
+			writer.write(HEADER);
+			writer.write("\r\n");
+			for (var i = 0; i < rows; i++) {
+				var speed = (i % 600) / 6.0;
+				writer.write(String.format(Locale.ROOT,
+						"%s,%.3f,%.4f,%.4f,%.3f,%.7f,%.7f,%.2f,%.3f,0.0,%.4f,%.3f\r\n",
+						start.plusNanos(i * 55_000_000L).format(DATETIME_FORMAT),
+						i * 0.055,
+						speed,
+						speed * 0.621371,
+						400 + Math.sin(i / 1000.0) * 50,
+						48.1 + i * 0.0000001,
+						11.5 + i * 0.0000001,
+						i * 1.5,
+						i * 0.055,
+						speed,
+						450.0
+				));
+			}
+		}
+		return file;
+	}
+
+	private static <T> Measurement<T> measure(Supplier<T> operation) {
+		var threadBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+		var heapBefore = usedHeapAfterGc();
+		var allocatedBefore = threadBean.getCurrentThreadAllocatedBytes();
+
+		var result = operation.get();
+
+		var allocatedBytes = threadBean.getCurrentThreadAllocatedBytes() - allocatedBefore;
+		// the result is still referenced, so its heap is retained by the GC
+		var heapAfter = usedHeapAfterGc();
+
+		return new Measurement<>(result, allocatedBytes, Math.max(heapAfter - heapBefore, 0));
+	}
+
+	private static long usedHeapAfterGc() {
+		var memoryBean = ManagementFactory.getMemoryMXBean();
+		System.gc();
+		return memoryBean.getHeapMemoryUsage().getUsed();
+	}
+
+	private static void assertBudget(String name, Measurement<?> measurement, int rows, long allocatedBytesBudget, long retainedHeapBytesBudget) {
+		var allocatedBytesPerRow = measurement.allocatedBytes() / rows;
+		var retainedHeapBytesPerRow = measurement.retainedHeapBytes() / rows;
+		allocatedBytesBudget = Long.getLong("perf." + name + ".allocatedBytesPerRow", allocatedBytesBudget);
+		retainedHeapBytesBudget = Long.getLong("perf." + name + ".retainedHeapBytesPerRow", retainedHeapBytesBudget);
+
+		System.out.printf("%s: %d rows, %d allocated bytes per row (budget %d), %d retained heap bytes per row (budget %d)%n",
+				name, rows, allocatedBytesPerRow, allocatedBytesBudget, retainedHeapBytesPerRow, retainedHeapBytesBudget);
+
+		assertTrue(allocatedBytesPerRow <= allocatedBytesBudget,
+				name + " allocates " + allocatedBytesPerRow + " bytes per row, budget is " + allocatedBytesBudget);
+		assertTrue(retainedHeapBytesPerRow <= retainedHeapBytesBudget,
+				name + " retains " + retainedHeapBytesPerRow + " heap bytes per row, budget is " + retainedHeapBytesBudget);
+	}
+
+	private record Measurement<T>(T result, long allocatedBytes, long retainedHeapBytes) {
+	}
+}
@@ -0,0 +1,173 @@
+package net.packsam.telemetrycsvmerger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TelemetryServerTest {
+	private static final String JOB_CONTENT_TYPE = "text/x-arguments";
+
+	private static final int MAX_FINISHED_JOBS = 2;
+
+	private static final Duration JOB_TIMEOUT = Duration.ofSeconds(30);
+
+	@TempDir
+	Path tempDir;
+
+	private TelemetryServer server;
+
+	private HttpClient client;
+
+	@BeforeEach
+	void startServer() throws IOException {
+		server = new TelemetryServer(0, 1, MAX_FINISHED_JOBS);
+		server.start();
+		client = HttpClient.newHttpClient();
+	}
+
+	@AfterEach
+	void stopServer() {
+		server.stop();
+	}
+
+	@Test
+	void rejectsRequestsFromWebPages() throws Exception {
+		var request = jobRequest("/jobs/compare", "a.csv\nb.csv")
+				.header("Origin", "https://example.com")
+				.build();
+		assertEquals(403, send(request).statusCode());
+
+		assertEquals(403, send(HttpRequest.newBuilder(uri("/jobs")).header("Origin", "https://example.com").build()).statusCode());
+	}
+
+	@Test
+	void rejectsJobsWithoutJobContentType() throws Exception {
+		var plainText = HttpRequest.newBuilder(uri("/jobs/compare"))
+				.header("Content-Type", "text/plain; charset=utf-8")
+				.POST(HttpRequest.BodyPublishers.ofString("a.csv\nb.csv"))
+				.build();
+		assertEquals(415, send(plainText).statusCode());
+
+		var withoutContentType = HttpRequest.newBuilder(uri("/jobs/compare"))
+				.POST(HttpRequest.BodyPublishers.ofString("a.csv\nb.csv"))
+				.build();
+		assertEquals(415, send(withoutContentType).statusCode());
+
+		assertEquals("[]", send(HttpRequest.newBuilder(uri("/jobs")).build()).body());
+	}
+
+	@Test
+	void rejectsInvalidArguments() throws Exception {
+		assertEquals(400, send(jobRequest("/jobs/merge", "--unknown\na.csv").build()).statusCode());
+		assertEquals(400, send(jobRequest("/jobs/compare", "a.csv").build()).statusCode());
+
+		assertEquals("[]", send(HttpRequest.newBuilder(uri("/jobs")).build()).body());
+	}
+
+	@Test
+	void runsMergeJob() throws Exception {
+		var file1 = createFile("input1.csv", "2022-05-01 10:00:00.000000,0.0,10.5", "2022-05-01 10:00:01.000000,1.0,11.5");
+		var file2 = createFile("input2.csv", "2022-05-01 11:00:00.000000,0.0,12.5");
+		var outputFile = tempDir.resolve("merged.csv").toFile();
+
+		var response = send(jobRequest("/jobs/merge", String.join("\n", "-o", outputFile.getPath(), file1.getPath(), file2.getPath())).build());
+
+		assertEquals(202, response.statusCode());
+		var location = response.headers().firstValue("Location").orElseThrow();
+		assertTrue(awaitFinished(location).contains("\"status\":\"SUCCEEDED\""));
+		assertEquals(4, Files.readAllLines(outputFile.toPath()).size());
+	}
+
+	@Test
+	void reportsFailedJob() throws Exception {
+		var file1 = createFile("input1.csv", "2022-05-01 10:00:00.000000,0.0,10.5");
+		var file2 = createFile("input2.csv", "2022-05-01 10:00:00.000000,0.0,12.5");
+
+		var response = send(jobRequest("/jobs/compare", file1.getPath() + "\n" + file2.getPath()).build());
+
+		assertEquals(202, response.statusCode());
+		var json = awaitFinished(response.headers().firstValue("Location").orElseThrow());
+		assertTrue(json.contains("\"status\":\"FAILED\""), json);
+		assertTrue(json.contains("\"message\":\"Decimal value in CSV files does not match."), json);
+	}
+
+	@Test
+	void reportsInvalidTimeRangeExtraction() throws Exception {
+		var file = createFile("input.csv", "2022-05-01 10:00:00.000000,0.0,10.5");
+
+		var response = send(jobRequest("/jobs/merge", String.join("\n", "--from", "0", "-i", "2", file.getPath())).build());
+
+		assertEquals(202, response.statusCode());
+		var json = awaitFinished(response.headers().firstValue("Location").orElseThrow());
+		assertTrue(json.contains("\"status\":\"FAILED\""), json);
+		assertTrue(json.contains("can not be combined with --factor, --precision or --index."), json);
+	}
+
+	@Test
+	void keepsOnlyLatestFinishedJobs() throws Exception {
+		var file = createFile("input.csv", "2022-05-01 10:00:00.000000,0.0,10.5");
+		var args = file.getPath() + "\n" + file.getPath();
+
+		for (var i = 1; i <= MAX_FINISHED_JOBS + 2; i++) {
+			var response = send(jobRequest("/jobs/compare", args).build());
+			assertEquals("/jobs/" + i, response.headers().firstValue("Location").orElseThrow());
+			awaitFinished("/jobs/" + i);
+		}
+		assertEquals(202, send(jobRequest("/jobs/compare", args).build()).statusCode());
+
+		assertEquals(404, send(HttpRequest.newBuilder(uri("/jobs/1")).build()).statusCode());
+		assertEquals(404, send(HttpRequest.newBuilder(uri("/jobs/2")).build()).statusCode());
+		for (var i = 3; i <= MAX_FINISHED_JOBS + 3; i++) {
+			assertEquals(200, send(HttpRequest.newBuilder(uri("/jobs/" + i)).build()).statusCode());
+		}
+	}
+
+	private File createFile(String name, String... rows) throws IOException {
+		var file = tempDir.resolve(name);
+		Files.writeString(file, "DateTime,GlobalTime,Speed KPH\r\n" + String.join("\r\n", rows) + "\r\n");
+		return file.toFile();
+	}
+
+	private String awaitFinished(String location) throws Exception {
+		var deadline = Instant.now().plus(JOB_TIMEOUT);
+		while (Instant.now().isBefore(deadline)) {
+			var response = send(HttpRequest.newBuilder(uri(location)).build());
+			assertEquals(200, response.statusCode());
+			if (response.body().contains("\"status\":\"SUCCEEDED\"") || response.body().contains("\"status\":\"FAILED\"")) {
+				return response.body();
+			}
+			Thread.sleep(10);
+		}
+		throw new AssertionError("Job " + location + " did not finish within " + JOB_TIMEOUT);
+	}
+
+	private HttpRequest.Builder jobRequest(String path, String args) {
+		return HttpRequest.newBuilder(uri(path))
+				.header("Content-Type", JOB_CONTENT_TYPE)
+				.POST(HttpRequest.BodyPublishers.ofString(args));
+	}
+
+	private HttpResponse<String> send(HttpRequest request) throws Exception {
+		return client.send(request, HttpResponse.BodyHandlers.ofString());
+	}
+
+	private URI uri(String path) {
+		var address = server.getAddress();
+		return URI.create("http://" + address.getHostString() + ":" + address.getPort() + path);
+	}
+}
@@ -0,0 +1,203 @@
+package net.packsam.telemetrycsvmerger;
+
+import net.packsam.telemetrycsvmerger.model.DataColumn;
+import net.packsam.telemetrycsvmerger.model.DataSet;
+import net.packsam.telemetrycsvmerger.model.TimeRange;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static java.util.Collections.emptyMap;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TimeRangeExtractorTest {
+	private static final DataColumn DATETIME = new DataColumn("DateTime", DataColumn.Type.DATETIME, DataColumn.AggregationType.NONE);
+
+	private static final DataColumn GLOBAL_TIME = new DataColumn("GlobalTime", DataColumn.Type.NUMERIC, DataColumn.AggregationType.INC);
+
+	private static final DataColumn SPEED = new DataColumn("Speed KPH", DataColumn.Type.NUMERIC, DataColumn.AggregationType.NONE);
+
+	/**
+	 * Sorted GlobalTime values with duplicates, also across index entries which are written every 2 rows.
+	 */
+	private static final List<String> GLOBAL_TIMES = List.of("0.0", "0.5", "1.0", "1.0", "1.0", "1.5", "2.0", "2.5", "2.5", "3.0");
+
+	private static final LocalDateTime START = LocalDateTime.of(2022, 5, 1, 10, 0);
+
+	@TempDir
+	Path tempDir;
+
+	static Stream<Arguments> variants() {
+		return Stream.of(
+				Arguments.of(true, 1L << 30),
+				Arguments.of(false, 1L << 30),
+				Arguments.of(true, 7L),
+				Arguments.of(false, 7L),
+				Arguments.of(false, 1L)
+		);
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void boundsBetweenRows(boolean withIndex, long segmentSize) throws IOException {
+		assertExtracted(withIndex, segmentSize, new BigDecimal("0.7"), new BigDecimal("2.2"));
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void boundsOnDuplicateKeys(boolean withIndex, long segmentSize) throws IOException {
+		assertExtracted(withIndex, segmentSize, new BigDecimal("1.0"), new BigDecimal("2.5"));
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void emptyRange(boolean withIndex, long segmentSize) throws IOException {
+		assertExtracted(withIndex, segmentSize, new BigDecimal("1.2"), new BigDecimal("1.4"));
+		assertExtracted(withIndex, segmentSize, new BigDecimal("2.0"), new BigDecimal("1.0"));
+		assertExtracted(withIndex, segmentSize, new BigDecimal("5"), null);
+		assertExtracted(withIndex, segmentSize, null, new BigDecimal("-1"));
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void fromOnly(boolean withIndex, long segmentSize) throws IOException {
+		assertExtracted(withIndex, segmentSize, new BigDecimal("2.5"), null);
+		assertExtracted(withIndex, segmentSize, new BigDecimal("-1"), null);
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void toOnly(boolean withIndex, long segmentSize) throws IOException {
+		assertExtracted(withIndex, segmentSize, null, new BigDecimal("1.0"));
+		assertExtracted(withIndex, segmentSize, null, new BigDecimal("3.0"));
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void dateTimeRange(boolean withIndex, long segmentSize) throws IOException {
+		var file = createFile(withIndex);
+		var outputFile = tempDir.resolve("output.csv").toFile();
+
+		new TimeRangeExtractor(segmentSize).extract(file, new TimeRange(DATETIME, START.plusSeconds(1), START.plusSeconds(2)), outputFile);
+
+		assertEquals(expectedLines(file, rowIndex -> isWithin(new BigDecimal(GLOBAL_TIMES.get(rowIndex)), new BigDecimal("1.0"), new BigDecimal("2.0"))),
+				Files.readAllLines(outputFile.toPath()));
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void rejectsInputAsOutput(boolean withIndex, long segmentSize) throws IOException {
+		var file = createFile(withIndex);
+		var content = Files.readAllBytes(file.toPath());
+
+		assertThrows(IllegalArgumentException.class, () -> new TimeRangeExtractor(segmentSize).extract(file, new TimeRange(GLOBAL_TIME, BigDecimal.ONE, null), file));
+		assertEquals(new String(content), Files.readString(file.toPath()));
+	}
+
+	@ParameterizedTest
+	@MethodSource("variants")
+	void ignoresIndexOfOtherFileContents(boolean withIndex, long segmentSize) throws IOException {
+		var file = createFile(true);
+		var indexFile = TimeIndexWriter.getIndexFile(file);
+		var index = Files.readAllBytes(indexFile.toPath());
+		if (!withIndex) {
+			// a shorter file with the index of the original file, offsets would point into the middle of lines
+			var lines = Files.readAllLines(file.toPath());
+			Files.writeString(file.toPath(), String.join("\r\n", lines.subList(0, lines.size() - 1)) + "\r\n");
+			Files.write(indexFile.toPath(), index);
+		}
+
+		assertEquals(withIndex, new TimeIndexReader().parseIndexOf(file).isPresent());
+		assertExtracted(file, segmentSize, new BigDecimal("0.7"), new BigDecimal("2.2"));
+	}
+
+	@Test
+	void ignoresUnreadableIndex() throws IOException {
+		var file = createFile(true);
+		var indexFile = TimeIndexWriter.getIndexFile(file);
+		var lines = Files.readAllLines(indexFile.toPath());
+		var unreadableIndexes = List.of(
+				// index without the data length line as written by previous versions
+				String.join("\r\n", lines.subList(1, lines.size())),
+				String.join("\r\n", lines.subList(0, 2)) + "\r\n12,not a time,1.0",
+				String.join("\r\n", lines.subList(0, 2)) + "\r\n12",
+				"",
+				"garbage"
+		);
+
+		for (var unreadableIndex : unreadableIndexes) {
+			Files.writeString(indexFile.toPath(), unreadableIndex);
+			assertTrue(indexFile.setLastModified(file.lastModified() + 1000));
+
+			assertFalse(new TimeIndexReader().parseIndexOf(file).isPresent(), unreadableIndex);
+			assertExtracted(file, 1L << 30, new BigDecimal("0.7"), new BigDecimal("2.2"));
+		}
+	}
+
+	private void assertExtracted(boolean withIndex, long segmentSize, BigDecimal from, BigDecimal to) throws IOException {
+		assertExtracted(createFile(withIndex), segmentSize, from, to);
+	}
+
+	private void assertExtracted(File file, long segmentSize, BigDecimal from, BigDecimal to) throws IOException {
+		var outputFile = tempDir.resolve("output.csv").toFile();
+
+		new TimeRangeExtractor(segmentSize).extract(file, new TimeRange(GLOBAL_TIME, from, to), outputFile);
+
+		var expected = expectedLines(file, rowIndex -> isWithin(new BigDecimal(GLOBAL_TIMES.get(rowIndex)), from, to));
+		assertEquals(expected, Files.readAllLines(outputFile.toPath()), "Range " + from + " - " + to);
+		assertFalse(TimeIndexWriter.getIndexFile(outputFile).exists());
+	}
+
+	private boolean isWithin(BigDecimal value, BigDecimal from, BigDecimal to) {
+		return (from == null || value.compareTo(from) >= 0) && (to == null || value.compareTo(to) <= 0);
+	}
+
+	private List<String> expectedLines(File file, Predicate<Integer> rowFilter) throws IOException {
+		var lines = Files.readAllLines(file.toPath());
+		var expected = new ArrayList<String>();
+		expected.add(lines.get(0));
+		for (var i = 0; i < GLOBAL_TIMES.size(); i++) {
+			if (rowFilter.test(i)) {
+				expected.add(lines.get(i + 1));
+			}
+		}
+		return expected;
+	}
+
+	private File createFile(boolean withIndex) {
+		var data = new ArrayList<Map<String, Comparable<? extends Comparable<?>>>>();
+		for (var i = 0; i < GLOBAL_TIMES.size(); i++) {
+			var globalTime = new BigDecimal(GLOBAL_TIMES.get(i));
+			var row = new LinkedHashMap<String, Comparable<? extends Comparable<?>>>();
+			row.put(DATETIME.name(), START.plusNanos(globalTime.movePointRight(9).longValueExact()));
+			row.put(GLOBAL_TIME.name(), globalTime);
+			row.put(SPEED.name(), new BigDecimal(i * 10 + ".25"));
+			data.add(row);
+		}
+
+		var file = tempDir.resolve("input.csv").toFile();
+		new DataSetWriter(emptyMap(), emptyMap(), withIndex ? 2 : 0)
+				.write(new DataSet(new DataColumn[]{DATETIME, GLOBAL_TIME, SPEED}, data), file);
+		assertTrue(file.length() > 0);
+		assertEquals(withIndex, TimeIndexWriter.getIndexFile(file).exists());
+		return file;
+	}
+}